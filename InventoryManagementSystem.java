@@ -1,4 +1,8 @@
 import java.util.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 class SparseElement {
     private int row;
@@ -23,47 +27,466 @@ class SparseElement {
     }
 }
 
+class QuantityHistory {
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int BLOCK_SIZE = 64;
+    private static final int BLOCK_HEADER_BYTES = 16; // first timestamp + first value + count
+    // An increase only counts as a restock when it adds at least this many units and at least
+    // this percentage of the previous level, so small stock corrections are ignored.
+    private static final int RESTOCK_MIN_UNITS = 2;
+    private static final int RESTOCK_MIN_PERCENT = 10;
+
+    // Samples are packed Gorilla-style into fixed-size blocks: the block header keeps the
+    // first timestamp and value raw, later timestamps are stored as delta-of-delta and
+    // values as deltas, both using variable-width bit buckets.
+    private static class Block {
+        private final long firstTimestamp;
+        private final int firstValue;
+        private int count;
+        private long[] words;
+        private int bitLength;
+
+        Block(long firstTimestamp, int firstValue) {
+            this.firstTimestamp = firstTimestamp;
+            this.firstValue = firstValue;
+            this.count = 1;
+            this.words = new long[4];
+            this.bitLength = 0;
+        }
+
+        void writeBits(long value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                int wordIndex = bitLength >>> 6;
+                if (wordIndex == words.length) {
+                    words = Arrays.copyOf(words, words.length * 2);
+                }
+                if (((value >>> i) & 1L) != 0) {
+                    words[wordIndex] |= 1L << (63 - (bitLength & 63));
+                }
+                bitLength++;
+            }
+        }
+
+        long readBits(int[] position, int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                int pos = position[0]++;
+                value = (value << 1) | ((words[pos >>> 6] >>> (63 - (pos & 63))) & 1L);
+            }
+            return value;
+        }
+
+        void seal() {
+            words = Arrays.copyOf(words, (bitLength + 63) >>> 6);
+        }
+
+        int sizeInBytes() {
+            return BLOCK_HEADER_BYTES + (bitLength + 7) / 8;
+        }
+    }
+
+    private final List<Block> blocks;
+    private Block openBlock;
+    private long lastTimestamp;
+    private long lastDelta;
+    private int lastValue;
+    private int sampleCount;
+    private long firstRestockTimestamp;
+    private long lastRestockTimestamp;
+    private int restockCount;
+
+    public QuantityHistory() {
+        this.blocks = new ArrayList<>();
+        this.sampleCount = 0;
+    }
+
+    // Samples must arrive in time order so the delta-of-delta encoding stays valid.
+    public void append(long timestamp, int value) {
+        if (sampleCount > 0 && timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("timestamp " + timestamp + 
+                                               " is earlier than last sample " + lastTimestamp);
+        }
+
+        // The first sample counts as the initial stocking; see isRestock for later samples.
+        if (sampleCount == 0 || isRestock(lastValue, value)) {
+            if (restockCount == 0) {
+                firstRestockTimestamp = timestamp;
+            }
+            lastRestockTimestamp = timestamp;
+            restockCount++;
+        }
+
+        if (openBlock == null || openBlock.count == BLOCK_SIZE) {
+            if (openBlock != null) {
+                openBlock.seal();
+            }
+            openBlock = new Block(timestamp, value);
+            blocks.add(openBlock);
+            lastDelta = 0;
+        } else {
+            long delta = timestamp - lastTimestamp;
+            writeSigned(openBlock, delta - lastDelta);
+            writeSigned(openBlock, (long) value - lastValue);
+            lastDelta = delta;
+            openBlock.count++;
+        }
+
+        lastTimestamp = timestamp;
+        lastValue = value;
+        sampleCount++;
+    }
+
+    public int valueAt(long timestamp) {
+        int blockIndex = findBlock(timestamp);
+        if (blockIndex == -1) {
+            return -1;
+        }
+
+        Block block = blocks.get(blockIndex);
+        long[] timestamps = new long[block.count];
+        int[] values = new int[block.count];
+        decode(block, timestamps, values);
+
+        int result = values[0];
+        for (int i = 1; i < block.count && timestamps[i] <= timestamp; i++) {
+            result = values[i];
+        }
+        return result;
+    }
+
+    // Units consumed per day in (from, to]; restocks (increases) are not counted.
+    public double consumptionRate(long from, long to) {
+        if (blocks.isEmpty() || to <= from) {
+            return 0;
+        }
+
+        // Start at the block holding the last sample at or before 'from'; its samples up to
+        // 'from' only establish the baseline level.
+        long consumed = 0;
+        boolean hasPrevious = false;
+        int previous = 0;
+        for (int b = Math.max(0, findBlock(from)); b < blocks.size(); b++) {
+            Block block = blocks.get(b);
+            long[] timestamps = new long[block.count];
+            int[] values = new int[block.count];
+            decode(block, timestamps, values);
+
+            for (int i = 0; i < block.count; i++) {
+                if (timestamps[i] > to) {
+                    return consumed / ((double) (to - from) / DAY_MILLIS);
+                }
+                if (timestamps[i] > from && hasPrevious && values[i] < previous) {
+                    consumed += previous - values[i];
+                }
+                previous = values[i];
+                hasPrevious = true;
+            }
+        }
+        return consumed / ((double) (to - from) / DAY_MILLIS);
+    }
+
+    // Average days between restocks, counting the first sample as the initial stocking, or
+    // estimateDays until a restock has been recorded. The open interval since the last
+    // restock is a lower bound, so an item that stops being restocked drifts upwards.
+    public int restockIntervalDays(long now, int estimateDays) {
+        int intervalDays = estimateDays;
+        if (restockCount >= 2) {
+            intervalDays = (int) Math.round((double) (lastRestockTimestamp - firstRestockTimestamp) / 
+                                            (restockCount - 1) / DAY_MILLIS);
+        }
+        if (sampleCount > 0) {
+            long openDays = (Math.max(now, lastTimestamp) - lastRestockTimestamp) / DAY_MILLIS;
+            intervalDays = (int) Math.max(intervalDays, openDays);
+        }
+        return intervalDays;
+    }
+
+    public long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public int size() {
+        return sampleCount;
+    }
+
+    public int sizeInBytes() {
+        int bytes = 0;
+        for (Block block : blocks) {
+            bytes += block.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static boolean isRestock(int previous, int value) {
+        int increase = value - previous;
+        return increase >= RESTOCK_MIN_UNITS && increase * 100L >= (long) previous * RESTOCK_MIN_PERCENT;
+    }
+
+    // Index of the last block starting at or before the timestamp, or -1 if it predates the history.
+    private int findBlock(long timestamp) {
+        if (blocks.isEmpty() || timestamp < blocks.get(0).firstTimestamp) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blocks.get(mid).firstTimestamp <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void decode(Block block, long[] timestamps, int[] values) {
+        int[] position = {0};
+        long timestamp = block.firstTimestamp;
+        long delta = 0;
+        int value = block.firstValue;
+        timestamps[0] = timestamp;
+        values[0] = value;
+
+        for (int i = 1; i < block.count; i++) {
+            delta += readSigned(block, position);
+            timestamp += delta;
+            value += (int) readSigned(block, position);
+            timestamps[i] = timestamp;
+            values[i] = value;
+        }
+    }
+
+    // Bucket layout: '0' for zero, then '10', '110', '1110' and '1111' prefixes
+    // followed by 7, 12, 20 and 64 bit two's-complement payloads.
+    private static void writeSigned(Block block, long value) {
+        if (value == 0) {
+            block.writeBits(0b0, 1);
+        } else if (fits(value, 7)) {
+            block.writeBits(0b10, 2);
+            block.writeBits(value, 7);
+        } else if (fits(value, 12)) {
+            block.writeBits(0b110, 3);
+            block.writeBits(value, 12);
+        } else if (fits(value, 20)) {
+            block.writeBits(0b1110, 4);
+            block.writeBits(value, 20);
+        } else {
+            block.writeBits(0b1111, 4);
+            block.writeBits(value, 64);
+        }
+    }
+
+    private static long readSigned(Block block, int[] position) {
+        int prefix = 0;
+        while (prefix < 4 && block.readBits(position, 1) == 1) {
+            prefix++;
+        }
+
+        int bits;
+        switch (prefix) {
+            case 0: return 0;
+            case 1: bits = 7; break;
+            case 2: bits = 12; break;
+            case 3: bits = 20; break;
+            default: bits = 64; break;
+        }
+
+        long raw = block.readBits(position, bits);
+        return bits == 64 ? raw : (raw << (64 - bits)) >> (64 - bits);
+    }
+
+    private static boolean fits(long value, int bits) {
+        long limit = 1L << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+}
+
+class ColdItemRecord {
+    private static final int RECORD_OVERHEAD_BYTES = 32; // object header, id and array header
+
+    private final int id;
+    private final byte[] data;
+
+    // Record layout: varint name length, name bytes (UTF-8), varint quantity,
+    // 8-byte price bits and varint restock frequency.
+    public ColdItemRecord(int id, String name, int quantity, double price, int restockFreq) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[5 + nameBytes.length + 5 + 8 + 5];
+        int pos = writeVarInt(buffer, 0, nameBytes.length);
+        System.arraycopy(nameBytes, 0, buffer, pos, nameBytes.length);
+        pos += nameBytes.length;
+        pos = writeVarInt(buffer, pos, quantity);
+        long priceBits = Double.doubleToLongBits(price);
+        for (int i = 7; i >= 0; i--) {
+            buffer[pos++] = (byte) (priceBits >>> (i * 8));
+        }
+        pos = writeVarInt(buffer, pos, restockFreq);
+
+        this.id = id;
+        this.data = Arrays.copyOf(buffer, pos);
+    }
+
+    public int getId() { return id; }
+
+    public String getName() {
+        int[] pos = {0};
+        int length = readVarInt(pos);
+        return new String(data, pos[0], length, StandardCharsets.UTF_8);
+    }
+
+    public int getQuantity() {
+        int[] pos = {0};
+        int nameLength = readVarInt(pos);
+        pos[0] += nameLength;
+        return readVarInt(pos);
+    }
+
+    public double getPrice() {
+        int[] pos = {0};
+        int nameLength = readVarInt(pos);
+        pos[0] += nameLength;
+        readVarInt(pos);
+        long priceBits = 0;
+        for (int i = 0; i < 8; i++) {
+            priceBits = (priceBits << 8) | (data[pos[0]++] & 0xFF);
+        }
+        return Double.longBitsToDouble(priceBits);
+    }
+
+    public int getRestockFreq() {
+        int[] pos = {0};
+        int nameLength = readVarInt(pos);
+        pos[0] += nameLength;
+        readVarInt(pos);
+        pos[0] += 8;
+        return readVarInt(pos);
+    }
+
+    public int sizeInBytes() {
+        return RECORD_OVERHEAD_BYTES + data.length;
+    }
+
+    private static int writeVarInt(byte[] buffer, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private int readVarInt(int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, Name: %s, Quantity: %d, Price: $%.2f, RestockFreq: %d days (cold)",
+                           id, getName(), getQuantity(), getPrice(), getRestockFreq());
+    }
+}
+
 public class InventoryManagementSystem {
     
-    private Object[][] itemArray;           
+    private int[] itemIds;
+    private String[] itemNames;
+    private int[] quantities;
+    private double[] prices;
+    private int[] restockFreqs;
+    private int[] accessCounts;
     private List<SparseElement> sparseMatrix;  
-    private double[][] priceQuantityTable;  
 
     private int maxItems;
     private int currentItemCount;
     private boolean useRowMajor;  
     private Map<String, Integer> itemNameToIndex;
-    private Map<Integer, String> indexToItemName;
+    private Map<Integer, Integer> itemIdToIndex;
+    private Map<Integer, QuantityHistory> quantityHistory;
+
+    // Dense rows are never compacted: released rows go on a free list, so a row index stays
+    // valid for as long as its item remains in the dense tier.
+    private int denseCapacity;
+    private int rowLimit;
+    private int[] freeRows;
+    private int freeRowCount;
+    private Map<Integer, ColdItemRecord> coldTier;
+    private Map<String, Integer> coldNameToId;
+    private ScheduledExecutorService tierMigrator;
     
-    private static final int ID_COL = 0;
-    private static final int NAME_COL = 1;
-    private static final int QUANTITY_COL = 2;
-    private static final int PRICE_COL = 3;
-    private static final int RESTOCK_FREQ_COL = 4;
+    private static final int PRICE_COL = 0;
+    private static final int QUANTITY_COL = 1;
+
+    private static final int SPARSE_RESTOCK_THRESHOLD = 90;
+    // The migrator only demotes while the dense tier is fuller than this percentage.
+    private static final int DEMOTION_HIGH_WATER_PERCENT = 75;
+
+    // Estimated heap cost of one preallocated dense row across the primitive columns:
+    // id, quantity, price, restock frequency, name reference and access counter.
+    private static final int DENSE_ROW_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    // Estimated heap cost held by a dense item outside its row: the name String header, the
+    // name and id index nodes with their boxed keys/values (name chars added twice per item).
+    private static final int DENSE_ITEM_BYTES = 40 + (32 + 40 + 16) + (32 + 2 * 16);
+    // Estimated heap cost of indexing one cold record: the id and name map nodes with their
+    // boxed keys/values and the lower-cased name header (name chars added per item).
+    private static final int COLD_INDEX_BYTES = (32 + 2 * 16) + (32 + 40 + 16);
     
 
     public InventoryManagementSystem(int maxItems, boolean useRowMajor) {
+        this(maxItems, useRowMajor, maxItems);
+    }
+
+    // denseCapacity bounds the hot tier (the primitive item columns); items beyond it, up to
+    // maxItems, live compressed in the cold tier until they are accessed again.
+    public InventoryManagementSystem(int maxItems, boolean useRowMajor, int denseCapacity) {
         this.maxItems = maxItems;
         this.currentItemCount = 0;
         this.useRowMajor = useRowMajor;
-        this.itemArray = new Object[maxItems][5]; 
+        this.denseCapacity = Math.max(1, Math.min(denseCapacity, maxItems));
+        this.itemIds = new int[this.denseCapacity];
+        this.itemNames = new String[this.denseCapacity];
+        this.quantities = new int[this.denseCapacity];
+        this.prices = new double[this.denseCapacity];
+        this.restockFreqs = new int[this.denseCapacity];
+        this.accessCounts = new int[this.denseCapacity];
         this.sparseMatrix = new ArrayList<>();
-        this.priceQuantityTable = new double[maxItems][2]; 
         this.itemNameToIndex = new HashMap<>();
-        this.indexToItemName = new HashMap<>();
+        this.itemIdToIndex = new HashMap<>();
+        this.quantityHistory = new HashMap<>();
+        this.rowLimit = 0;
+        this.freeRows = new int[this.denseCapacity];
+        this.freeRowCount = 0;
+        this.coldTier = new HashMap<>();
+        this.coldNameToId = new HashMap<>();
         
         System.out.println("Inventory Management System initialized with " + maxItems + 
-                         " slots using " + (useRowMajor ? "Row-Major" : "Column-Major") + " ordering");
+                         " slots (" + this.denseCapacity + " dense) using " + 
+                         (useRowMajor ? "Row-Major" : "Column-Major") + " ordering");
     }
     
     public boolean addItemRecord(int id, String name, int quantity, double price, int restockFreq) {
+        return addItemRecord(id, name, quantity, price, restockFreq, System.currentTimeMillis());
+    }
+
+    public synchronized boolean addItemRecord(int id, String name, int quantity, double price, 
+                                              int restockFreq, long timestamp) {
         try {
-            if (currentItemCount >= maxItems) {
+            if (currentItemCount + coldTier.size() >= maxItems) {
                 System.out.println("Error: Inventory is full");
                 return false;
             }
 
-            if (searchByItem(id) != -1 || searchByItem(name) != -1) {
+            if (findDenseIndex(id) != -1 || findDenseIndex(name) != -1 || 
+                findColdRecord(id) != null || findColdRecord(name) != null) {
                 System.out.println("Error: Item with ID " + id + " or name '" + name + "' already exists");
                 return false;
             }
@@ -77,24 +500,21 @@ public class InventoryManagementSystem {
                 return false;
             }
             
-            int index = currentItemCount;
-
-            itemArray[index][ID_COL] = id;
-            itemArray[index][NAME_COL] = name;
-            itemArray[index][QUANTITY_COL] = quantity;
-            itemArray[index][PRICE_COL] = price;
-            itemArray[index][RESTOCK_FREQ_COL] = restockFreq;
+            if (currentItemCount >= denseCapacity) {
+                demoteRow(findColdestRow());
+            }
 
-            itemNameToIndex.put(name.toLowerCase(), index);
-            indexToItemName.put(index, name);
+            int index = placeDenseRow(id, name, quantity, price, restockFreq);
+            accessCounts[index] = 1;
 
-            managePriceQuantity(index, price, quantity);
+            QuantityHistory history = new QuantityHistory();
+            history.append(timestamp, quantity);
+            quantityHistory.put(id, history);
 
-            if (restockFreq > 90) {
-                optimizeSparseStorage(index, price, quantity);
+            if (restockFreq > SPARSE_RESTOCK_THRESHOLD) {
+                optimizeSparseStorage(id, price, quantity);
             }
             
-            currentItemCount++;
             System.out.println("Successfully added item: " + name + " (ID: " + id + ")");
             return true;
             
@@ -104,73 +524,93 @@ public class InventoryManagementSystem {
         }
     }
 
-    public boolean removeItemRecord(Object identifier) {
+    public synchronized boolean removeItemRecord(Object identifier) {
         try {
-            int index = searchByItem(identifier);
+            ColdItemRecord coldRecord = findColdRecord(identifier);
+            if (coldRecord != null) {
+                coldTier.remove(coldRecord.getId());
+                coldNameToId.remove(coldRecord.getName().toLowerCase());
+                quantityHistory.remove(coldRecord.getId());
+                System.out.println("Successfully removed item: " + coldRecord.getName() + 
+                                 " (ID: " + coldRecord.getId() + ")");
+                return true;
+            }
+
+            int index = findDenseIndex(identifier);
             if (index == -1) {
                 System.out.println("Error: Item not found");
                 return false;
             }
             
-            String itemName = (String) itemArray[index][NAME_COL];
-            int itemId = (Integer) itemArray[index][ID_COL];
+            String itemName = itemNames[index];
+            int itemId = itemIds[index];
 
-            sparseMatrix.removeIf(element -> element.getRow() == index);
+            quantityHistory.remove(itemId);
+            releaseDenseRow(index);
 
-            for (int i = index; i < currentItemCount - 1; i++) {
+            System.out.println("Successfully removed item: " + itemName + " (ID: " + itemId + ")");
+            return true;
             
-                for (int j = 0; j < 5; j++) {
-                    itemArray[i][j] = itemArray[i + 1][j];
-                }
+        } catch (Exception e) {
+            System.out.println("Error removing item: " + e.getMessage());
+            return false;
+        }
+    }
 
-                priceQuantityTable[i][0] = priceQuantityTable[i + 1][0];
-                priceQuantityTable[i][1] = priceQuantityTable[i + 1][1];
-            }
+    private int placeDenseRow(int id, String name, int quantity, double price, int restockFreq) {
+        int index = freeRowCount > 0 ? freeRows[--freeRowCount] : rowLimit++;
 
-            for (int j = 0; j < 5; j++) {
-                itemArray[currentItemCount - 1][j] = null;
-            }
-            priceQuantityTable[currentItemCount - 1][0] = 0;
-            priceQuantityTable[currentItemCount - 1][1] = 0;
+        itemIds[index] = id;
+        itemNames[index] = name;
+        quantities[index] = quantity;
+        prices[index] = price;
+        restockFreqs[index] = restockFreq;
+        accessCounts[index] = 0;
 
-            itemNameToIndex.remove(itemName.toLowerCase());
-            indexToItemName.remove(index);
+        itemNameToIndex.put(name.toLowerCase(), index);
+        itemIdToIndex.put(id, index);
 
-            for (int i = index; i < currentItemCount - 1; i++) {
-                String name = (String) itemArray[i][NAME_COL];
-                itemNameToIndex.put(name.toLowerCase(), i);
-                indexToItemName.put(i, name);
-            }
+        currentItemCount++;
+        return index;
+    }
 
-            for (SparseElement element : sparseMatrix) {
-                if (element.getRow() > index) {
-                
-                    SparseElement newElement = new SparseElement(element.getRow() - 1, 
-                                                               element.getCol(), element.getValue());
-                    sparseMatrix.set(sparseMatrix.indexOf(element), newElement);
-                }
+    private void releaseDenseRow(int index) {
+        sparseMatrix.removeIf(element -> element.getRow() == index);
+
+        itemNameToIndex.remove(itemNames[index].toLowerCase());
+        itemIdToIndex.remove(itemIds[index]);
+        
+        itemIds[index] = 0;
+        itemNames[index] = null;
+        quantities[index] = 0;
+        prices[index] = 0;
+        restockFreqs[index] = 0;
+        accessCounts[index] = 0;
+
+        freeRows[freeRowCount++] = index;
+        currentItemCount--;
+    }
+
+    // Looks an item up across both tiers. Every hit counts as an access, and a hit in the
+    // cold tier promotes the item back into a dense row before its index is returned.
+    public synchronized int searchByItem(Object identifier) {
+        int index = findDenseIndex(identifier);
+        if (index == -1) {
+            ColdItemRecord record = findColdRecord(identifier);
+            if (record == null) {
+                return -1;
             }
-            
-            currentItemCount--;
-            System.out.println("Successfully removed item: " + itemName + " (ID: " + itemId + ")");
-            return true;
-            
-        } catch (Exception e) {
-            System.out.println("Error removing item: " + e.getMessage());
-            return false;
+            index = promote(record);
         }
+        accessCounts[index]++;
+        return index;
     }
-    
-    public int searchByItem(Object identifier) {
+
+    private int findDenseIndex(Object identifier) {
         try {
             if (identifier instanceof Integer) {
 
-                int id = (Integer) identifier;
-                for (int i = 0; i < currentItemCount; i++) {
-                    if (itemArray[i][ID_COL] != null && (Integer) itemArray[i][ID_COL] == id) {
-                        return i;
-                    }
-                }
+                return itemIdToIndex.getOrDefault(identifier, -1);
             } else if (identifier instanceof String) {
                
                 String name = ((String) identifier).toLowerCase();
@@ -183,16 +623,137 @@ public class InventoryManagementSystem {
         }
     }
 
-    public void managePriceQuantity(int index, double price, double quantity) {
+    private ColdItemRecord findColdRecord(Object identifier) {
+        if (identifier instanceof Integer) {
+            return coldTier.get(identifier);
+        } else if (identifier instanceof String) {
+            Integer id = coldNameToId.get(((String) identifier).toLowerCase());
+            return id == null ? null : coldTier.get(id);
+        }
+        return null;
+    }
+
+    // Resolves an item's history without touching access counters or moving it between tiers.
+    private QuantityHistory findHistory(Object identifier) {
+        int index = findDenseIndex(identifier);
+        if (index != -1) {
+            return quantityHistory.get(itemIds[index]);
+        }
+        ColdItemRecord record = findColdRecord(identifier);
+        return record == null ? null : quantityHistory.get(record.getId());
+    }
+
+    private int findColdestRow() {
+        int coldest = -1;
+        for (int i = 0; i < rowLimit; i++) {
+            if (itemNames[i] != null && (coldest == -1 || accessCounts[i] < accessCounts[coldest])) {
+                coldest = i;
+            }
+        }
+        return coldest;
+    }
+
+    private void demoteRow(int index) {
+        int id = itemIds[index];
+        String name = itemNames[index];
+        ColdItemRecord record = new ColdItemRecord(id, name, quantities[index], prices[index],
+                                                   restockFreqs[index]);
+        releaseDenseRow(index);
+        coldTier.put(id, record);
+        coldNameToId.put(name.toLowerCase(), id);
+        System.out.println("Demoted item " + name + " to cold tier");
+    }
+
+    private int promote(ColdItemRecord record) {
+        if (currentItemCount >= denseCapacity) {
+            demoteRow(findColdestRow());
+        }
+
+        coldTier.remove(record.getId());
+        coldNameToId.remove(record.getName().toLowerCase());
+
+        int index = placeDenseRow(record.getId(), record.getName(), record.getQuantity(),
+                                  record.getPrice(), record.getRestockFreq());
+        refreshRestockFrequency(index);
+
+        System.out.println("Promoted item " + record.getName() + " to dense tier");
+        return index;
+    }
+
+    // One migration pass. While the dense tier is above its high-water mark, rows not accessed
+    // since the previous pass are demoted to the cold tier; the remaining counters are then
+    // halved so old accesses age out. Without a cold tier (denseCapacity == maxItems) every
+    // item fits in a dense row, so nothing is demoted.
+    public synchronized int migrateTiers() {
+        refreshRestockFrequencies();
+
+        int demoted = 0;
+        int highWater = denseCapacity * DEMOTION_HIGH_WATER_PERCENT / 100;
+        for (int i = 0; i < rowLimit; i++) {
+            if (itemNames[i] == null) {
+                continue;
+            }
+            if (denseCapacity < maxItems && currentItemCount > highWater && accessCounts[i] == 0) {
+                demoteRow(i);
+                demoted++;
+            } else {
+                accessCounts[i] >>= 1;
+            }
+        }
+        return demoted;
+    }
+
+    public synchronized void startTierMigrator(long periodMillis) {
+        if (tierMigrator != null) {
+            return;
+        }
+        tierMigrator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tier-migrator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tierMigrator.scheduleAtFixedRate(() -> {
+            try {
+                migrateTiers();
+            } catch (Exception e) {
+                // An escaping exception would cancel the schedule, so log and keep running.
+                System.out.println("Error migrating tiers: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopTierMigrator() {
+        if (tierMigrator != null) {
+            tierMigrator.shutdown();
+            tierMigrator = null;
+        }
+    }
+
+    public synchronized boolean isTierMigratorRunning() {
+        return tierMigrator != null;
+    }
+
+    public synchronized void managePriceQuantity(int id, double price, double quantity) {
         try {
-            if (useRowMajor) {
+            int index = findDenseIndex(id);
+            if (index == -1) {
+                ColdItemRecord record = findColdRecord(id);
+                if (record == null) {
+                    System.out.println("Error: Item not found");
+                    return;
+                }
+                coldTier.put(id, new ColdItemRecord(id, record.getName(), (int) quantity, price,
+                                                    record.getRestockFreq()));
+                return;
+            }
             
-                priceQuantityTable[index][0] = price;
-                priceQuantityTable[index][1] = quantity;
-            } else {
+            prices[index] = price;
+            quantities[index] = (int) quantity;
 
-                priceQuantityTable[index][0] = quantity;
-                priceQuantityTable[index][1] = price;
+            for (SparseElement element : sparseMatrix) {
+                if (element.getRow() == index) {
+                    element.setValue(element.getCol() == PRICE_COL ? price : quantity);
+                }
             }
         } catch (Exception e) {
             System.out.println("Error managing price-quantity data: " + e.getMessage());
@@ -200,44 +761,53 @@ public class InventoryManagementSystem {
     }
     
 
-    public void optimizeSparseStorage(int itemIndex, double price, double quantity) {
+    public synchronized void optimizeSparseStorage(int id, double price, double quantity) {
         try {
+            int itemIndex = findDenseIndex(id);
+            if (itemIndex == -1) {
+                System.out.println("Error: Item " + id + " is not in the dense tier");
+                return;
+            }
 
             if (price > 0) {
-                sparseMatrix.add(new SparseElement(itemIndex, 0, price));
+                sparseMatrix.add(new SparseElement(itemIndex, PRICE_COL, price));
             }
             if (quantity > 0) {
-                sparseMatrix.add(new SparseElement(itemIndex, 1, quantity));
+                sparseMatrix.add(new SparseElement(itemIndex, QUANTITY_COL, quantity));
             }
             
-            System.out.println("Added item " + indexToItemName.get(itemIndex) + " to sparse storage");
+            System.out.println("Added item " + itemNames[itemIndex] + " to sparse storage");
         } catch (Exception e) {
             System.out.println("Error optimizing sparse storage: " + e.getMessage());
         }
     }
     
-    public void displayAllItems() {
+    public synchronized void displayAllItems() {
         System.out.println("\n=== INVENTORY ITEMS ===");
-        if (currentItemCount == 0) {
+        if (currentItemCount == 0 && coldTier.isEmpty()) {
             System.out.println("Inventory is empty");
             return;
         }
         
-        System.out.printf("%-5s %-15s %-10s %-10s %-12s\n", "ID", "Name", "Quantity", "Price", "RestockFreq");
-        System.out.println("--------------------------------------------------------");
+        System.out.printf("%-5s %-15s %-10s %-10s %-12s %-6s\n", "ID", "Name", "Quantity", "Price", "RestockFreq", "Tier");
+        System.out.println("---------------------------------------------------------------");
         
-        for (int i = 0; i < currentItemCount; i++) {
-            System.out.printf("%-5d %-15s %-10d $%-9.2f %-12d\n",
-                (Integer) itemArray[i][ID_COL],
-                (String) itemArray[i][NAME_COL],
-                (Integer) itemArray[i][QUANTITY_COL],
-                (Double) itemArray[i][PRICE_COL],
-                (Integer) itemArray[i][RESTOCK_FREQ_COL]);
+        for (int i = 0; i < rowLimit; i++) {
+            if (itemNames[i] == null) {
+                continue;
+            }
+            System.out.printf("%-5d %-15s %-10d $%-9.2f %-12d %-6s\n",
+                itemIds[i], itemNames[i], quantities[i], prices[i], restockFreqs[i], "dense");
         }
-        System.out.println("Total items: " + currentItemCount);
+        for (ColdItemRecord record : coldTier.values()) {
+            System.out.printf("%-5d %-15s %-10d $%-9.2f %-12d %-6s\n",
+                record.getId(), record.getName(), record.getQuantity(),
+                record.getPrice(), record.getRestockFreq(), "cold");
+        }
+        System.out.println("Total items: " + (currentItemCount + coldTier.size()));
     }
 
-    public void displayPriceQuantityTable() {
+    public synchronized void displayPriceQuantityTable() {
         System.out.println("\n=== PRICE-QUANTITY TABLE (" + 
                          (useRowMajor ? "Row-Major" : "Column-Major") + ") ===");
         
@@ -248,14 +818,19 @@ public class InventoryManagementSystem {
         }
         System.out.println("---------------------------------------");
         
-        for (int i = 0; i < currentItemCount; i++) {
-            String itemName = indexToItemName.get(i);
-            System.out.printf("%-15s $%-9.2f %-10.0f\n", 
-                            itemName, priceQuantityTable[i][0], priceQuantityTable[i][1]);
+        for (int i = 0; i < rowLimit; i++) {
+            if (itemNames[i] == null) {
+                continue;
+            }
+            if (useRowMajor) {
+                System.out.printf("%-15s $%-9.2f %-10d\n", itemNames[i], prices[i], quantities[i]);
+            } else {
+                System.out.printf("%-15s %-10d $%-9.2f\n", itemNames[i], quantities[i], prices[i]);
+            }
         }
     }
 
-    public void displaySparseMatrix() {
+    public synchronized void displaySparseMatrix() {
         System.out.println("\n=== SPARSE MATRIX (Rarely Restocked Items) ===");
         if (sparseMatrix.isEmpty()) {
             System.out.println("No items in sparse storage");
@@ -264,29 +839,30 @@ public class InventoryManagementSystem {
         
         System.out.println("Format: (row, col, value) where col 0=price, col 1=quantity");
         for (SparseElement element : sparseMatrix) {
-            String itemName = indexToItemName.get(element.getRow());
-            String colType = element.getCol() == 0 ? "price" : "quantity";
+            String itemName = itemNames[element.getRow()];
+            String colType = element.getCol() == PRICE_COL ? "price" : "quantity";
             System.out.println(element + " -> " + itemName + " (" + colType + ")");
         }
     }
 
-    public String getItemDetails(Object identifier) {
+    public synchronized String getItemDetails(Object identifier) {
         int index = searchByItem(identifier);
         if (index == -1) {
             return null;
         }
         
         return String.format("ID: %d, Name: %s, Quantity: %d, Price: $%.2f, RestockFreq: %d days",
-            (Integer) itemArray[index][ID_COL],
-            (String) itemArray[index][NAME_COL],
-            (Integer) itemArray[index][QUANTITY_COL],
-            (Double) itemArray[index][PRICE_COL],
-            (Integer) itemArray[index][RESTOCK_FREQ_COL]);
+            itemIds[index], itemNames[index], quantities[index], prices[index], restockFreqs[index]);
     }
 
     public boolean updateQuantity(Object identifier, int newQuantity) {
-        int index = searchByItem(identifier);
-        if (index == -1) {
+        return updateQuantity(identifier, newQuantity, System.currentTimeMillis());
+    }
+
+    public synchronized boolean updateQuantity(Object identifier, int newQuantity, long timestamp) {
+        // Validate before searchByItem so a rejected update never promotes or evicts anything.
+        QuantityHistory history = findHistory(identifier);
+        if (history == null) {
             System.out.println("Error: Item not found");
             return false;
         }
@@ -295,37 +871,121 @@ public class InventoryManagementSystem {
             System.out.println("Error: Quantity must be non-negative");
             return false;
         }
+
+        if (timestamp < history.lastTimestamp()) {
+            System.out.println("Error: Timestamp is earlier than the last recorded update for " + identifier);
+            return false;
+        }
         
-        int oldQuantity = (Integer) itemArray[index][QUANTITY_COL];
-        itemArray[index][QUANTITY_COL] = newQuantity;
+        int index = searchByItem(identifier);
+        int oldQuantity = quantities[index];
+        managePriceQuantity(itemIds[index], prices[index], newQuantity);
+
+        history.append(timestamp, newQuantity);
+        refreshRestockFrequency(index);
+        
+        System.out.println("Updated quantity for " + itemNames[index] +
+                         " from " + oldQuantity + " to " + newQuantity);
+        return true;
+    }
+
+    public synchronized int getQuantityAt(Object identifier, long timestamp) {
+        QuantityHistory history = findHistory(identifier);
+        if (history == null) {
+            System.out.println("Error: Item not found");
+            return -1;
+        }
+        return history.valueAt(timestamp);
+    }
+
+    public synchronized double getConsumptionRate(Object identifier, int days) {
+        QuantityHistory history = findHistory(identifier);
+        if (history == null) {
+            System.out.println("Error: Item not found");
+            return -1;
+        }
+        if (days <= 0) {
+            System.out.println("Error: Days must be positive");
+            return -1;
+        }
+
+        long now = System.currentTimeMillis();
+        return history.consumptionRate(now - days * QuantityHistory.DAY_MILLIS, now);
+    }
+
+    // Re-derives every dense item's restock frequency against the current time, so items
+    // that have simply stopped being restocked are picked up without a quantity update.
+    public synchronized void refreshRestockFrequencies() {
+        for (int i = 0; i < rowLimit; i++) {
+            if (itemNames[i] != null) {
+                refreshRestockFrequency(i);
+            }
+        }
+    }
 
-        double price = (Double) itemArray[index][PRICE_COL];
-        managePriceQuantity(index, price, newQuantity);
+    private void refreshRestockFrequency(int index) {
+        int derivedFreq = quantityHistory.get(itemIds[index])
+                                         .restockIntervalDays(System.currentTimeMillis(), restockFreqs[index]);
+        restockFreqs[index] = derivedFreq;
 
+        boolean inSparse = false;
         for (SparseElement element : sparseMatrix) {
-            if (element.getRow() == index && element.getCol() == 1) {
-                element.setValue(newQuantity);
+            if (element.getRow() == index) {
+                inSparse = true;
                 break;
             }
         }
-        
-        System.out.println("Updated quantity for " + itemArray[index][NAME_COL] + 
-                         " from " + oldQuantity + " to " + newQuantity);
-        return true;
+
+        if (derivedFreq > SPARSE_RESTOCK_THRESHOLD && !inSparse) {
+            optimizeSparseStorage(itemIds[index], prices[index], quantities[index]);
+        } else if (derivedFreq <= SPARSE_RESTOCK_THRESHOLD && inSparse) {
+            sparseMatrix.removeIf(element -> element.getRow() == index);
+            System.out.println("Removed item " + itemNames[index] + " from sparse storage");
+        }
     }
 
-    public void displaySystemStats() {
+    public synchronized void displaySystemStats() {
         System.out.println("\n=== SYSTEM STATISTICS ===");
         System.out.println("Total capacity: " + maxItems);
-        System.out.println("Current items: " + currentItemCount);
-        System.out.println("Available slots: " + (maxItems - currentItemCount));
+        System.out.println("Current items: " + (currentItemCount + coldTier.size()));
+        System.out.println("Available slots: " + (maxItems - currentItemCount - coldTier.size()));
+        System.out.println("Dense tier: " + currentItemCount + "/" + denseCapacity + " rows");
+        System.out.println("Cold tier: " + coldTier.size() + " items");
         System.out.println("Memory organization: " + (useRowMajor ? "Row-Major" : "Column-Major"));
         System.out.println("Sparse matrix entries: " + sparseMatrix.size());
         System.out.println("Items in sparse storage: " + (sparseMatrix.size() / 2)); // price + quantity per item
+
+        int historySamples = 0;
+        int historyBytes = 0;
+        for (QuantityHistory history : quantityHistory.values()) {
+            historySamples += history.size();
+            historyBytes += history.sizeInBytes();
+        }
+        System.out.println("Quantity history samples: " + historySamples + 
+                         " (" + historyBytes + " bytes compressed)");
+        
+        // Compare the cold tier against keeping the same items dense: free preallocated rows
+        // would hold some of them at no extra cost, so only the overflow needs new rows.
+        int coldBytes = 0;
+        int denseEquivalentBytes = 0;
+        for (ColdItemRecord record : coldTier.values()) {
+            int nameLength = record.getName().length();
+            coldBytes += record.sizeInBytes() + COLD_INDEX_BYTES + nameLength;
+            denseEquivalentBytes += DENSE_ITEM_BYTES + 2 * nameLength;
+        }
+        int extraRows = Math.max(0, coldTier.size() - (denseCapacity - currentItemCount));
+        denseEquivalentBytes += extraRows * DENSE_ROW_BYTES;
+        System.out.println("Cold tier size: " + coldBytes + " bytes including index entries");
+        System.out.println("Same items kept dense: " + denseEquivalentBytes + " bytes (" +
+                         extraRows + " more dense rows needed)");
+        System.out.println("Estimated memory saved: " + (denseEquivalentBytes - coldBytes) + " bytes");
         
         double totalValue = 0;
-        for (int i = 0; i < currentItemCount; i++) {
-            totalValue += (Integer) itemArray[i][QUANTITY_COL] * (Double) itemArray[i][PRICE_COL];
+        for (int i = 0; i < rowLimit; i++) {
+            totalValue += quantities[i] * prices[i]; // free rows are zeroed
+        }
+        for (ColdItemRecord record : coldTier.values()) {
+            totalValue += record.getQuantity() * record.getPrice();
         }
         System.out.printf("Total inventory value: $%.2f\n", totalValue);
     }
@@ -386,5 +1046,59 @@ public class InventoryManagementSystem {
         
         System.out.println("\nColumn-Major Price-Quantity Table:");
         colMajorInventory.displayPriceQuantityTable();
+
+        System.out.println("\n=== Testing Quantity History ===");
+        long day = QuantityHistory.DAY_MILLIS;
+        long start = System.currentTimeMillis() - 200 * day;
+        inventory.addItemRecord(106, "Webcam", 40, 49.99, 30, start);
+        inventory.updateQuantity("Webcam", 25, start + 40 * day);
+        inventory.updateQuantity("Webcam", 10, start + 80 * day);
+        inventory.updateQuantity("Webcam", 40, start + 100 * day); // restock
+        inventory.updateQuantity("Webcam", 30, start + 180 * day);
+        inventory.updateQuantity("Webcam", 40, start + 195 * day); // restock
+        inventory.updateQuantity("Webcam", 35, start + 150 * day); // rejected: back-dated
+
+        System.out.println("Webcam quantity on day 90: " + inventory.getQuantityAt("Webcam", start + 90 * day));
+        System.out.printf("Webcam consumption over last 30 days: %.2f units/day\n",
+                          inventory.getConsumptionRate("Webcam", 30));
+        System.out.println("Webcam details: " + inventory.getItemDetails("Webcam"));
+
+        inventory.addItemRecord(107, "Projector", 10, 499.99, 5, start + 50 * day);
+        inventory.updateQuantity("Projector", 4, start + 52 * day);
+        inventory.updateQuantity("Projector", 10, start + 55 * day); // restock
+        inventory.updateQuantity("Projector", 11, start + 56 * day); // correction, not a restock
+        inventory.refreshRestockFrequencies();
+        System.out.println("Projector details: " + inventory.getItemDetails("Projector"));
+        inventory.displaySparseMatrix();
+        inventory.displaySystemStats();
+
+        System.out.println("\n=== Testing Dense/Cold Tiering ===");
+        InventoryManagementSystem tiered = new InventoryManagementSystem(10, true, 4);
+        tiered.addItemRecord(301, "Cable", 200, 5.99, 14);
+        tiered.addItemRecord(302, "Charger", 80, 19.99, 30);
+        tiered.addItemRecord(303, "Old Scanner", 3, 89.99, 150);
+        tiered.addItemRecord(304, "Adapter", 120, 9.99, 20);
+        tiered.updateQuantity("Cable", 190);
+        tiered.updateQuantity("Adapter", 110);
+        tiered.addItemRecord(305, "Mouse Pad", 60, 4.99, 45); // dense tier full, coldest row demoted
+
+        System.out.println("Migrator demoted " + tiered.migrateTiers() + " item(s)"); // ages counters
+        tiered.updateQuantity("Cable", 185);
+        System.out.println("Migrator demoted " + tiered.migrateTiers() + " item(s)"); // above high-water mark
+        tiered.displayAllItems();
+        tiered.displaySystemStats();
+
+        System.out.println("\nRejected updates and history queries leave cold items in place:");
+        tiered.updateQuantity("Charger", -3);
+        System.out.println("Charger quantity now: " + tiered.getQuantityAt("Charger", System.currentTimeMillis()));
+
+        System.out.println("\nAccessing a cold item promotes it:");
+        System.out.println(tiered.getItemDetails("Mouse Pad"));
+        tiered.displayAllItems();
+
+        tiered.startTierMigrator(60000);
+        System.out.println("\nBackground migrator running: " + tiered.isTierMigratorRunning());
+        tiered.stopTierMigrator();
+        System.out.println("Background migrator running: " + tiered.isTierMigratorRunning());
     }
 }
\ No newline at end of file